@@ -0,0 +1,114 @@
+package com.company;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated per operation on the insert and lookup paths, using the
+ * per-thread allocation counter of the HotSpot ThreadMXBean.
+ *
+ * Run from the repository root with:
+ *   javac -d out src/java/com/company/*.java src/bench/com/company/*.java
+ *   java -cp out com.company.AllocationBenchmark [iterations]
+ */
+public class AllocationBenchmark {
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        File dir = createTempDir();
+        String explanation = repeat('x', 200);
+
+        final Encyclopedia encyclopedia = new Encyclopedia(new File(dir, "encyclopedia").getPath());
+        final Post post = new Post();
+        post.setPhrase("Random File Access");
+        post.setExplanation(explanation);
+        encyclopedia.insertNewPost(post);
+
+        final PostWriter writer = new PostWriter("Random File Access");
+        writer.writeObject(explanation);
+        final Dictionary dictionary = new Dictionary(new File(dir, "dictionary").getPath(), 16);
+        dictionary.insertRecord(writer);
+        final byte[] buf = new byte[dictionary.getRecordLength("Random File Access")];
+
+        System.out.println("Entry of " + explanation.length() + " characters, " + iterations + " iterations");
+        report("deletePost + insertNewPost", iterations, new Operation() {
+            public void run() throws Exception {
+                encyclopedia.deletePost(post.getPhrase());
+                encyclopedia.insertNewPost(post);
+            }
+        });
+        report("updatePost", iterations, new Operation() {
+            public void run() throws Exception {
+                encyclopedia.updatePost(post);
+            }
+        });
+        report("searchPhrase", iterations, new Operation() {
+            public void run() throws Exception {
+                encyclopedia.searchPhrase(post.getPhrase());
+            }
+        });
+        report("readRecord(key, byte[])", iterations, new Operation() {
+            public void run() throws Exception {
+                dictionary.readRecord("Random File Access", buf);
+            }
+        });
+
+        dictionary.close();
+        deleteAll(dir);
+    }
+
+    /**
+     * Runs the operation the given number of times to warm up, then the same number
+     * of times measured, and prints the bytes allocated and time taken per operation
+     * in the measured run.
+     */
+    private static void report(String name, int iterations, Operation op) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - before;
+        System.out.println(String.format("%-28s %10.1f B/op %10.1f ns/op",
+                name, (double) allocated / iterations, (double) elapsed / iterations));
+    }
+
+    private static String repeat(char c, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static File createTempDir() throws IOException {
+        File dir = File.createTempFile("encyclopedia-bench", "");
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Could not create directory: " + dir);
+        }
+        return dir;
+    }
+
+    private static void deleteAll(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (int i = 0; i < files.length; i++) {
+                files[i].delete();
+            }
+        }
+        dir.delete();
+    }
+}
@@ -18,6 +18,10 @@ public abstract class AbstractDictionary {
     protected static final long NUM_RECORDS_HEADER_LOCATION = 0;
     // File pointer to the data start pointer header.
     protected static final long DATA_START_HEADER_LOCATION = 4;
+    // Reusable buffer for encoding index keys. Guarded by the dictionary lock.
+    private final CustomByteArrayOutputStream keyBuffer = new CustomByteArrayOutputStream(MAX_KEY_LENGTH);
+    // Encoder writing into keyBuffer; reuses its internal UTF buffer between calls.
+    private final DataOutputStream keyOut = new DataOutputStream(keyBuffer);
 
     protected AbstractDictionary(String dbPath, int initialSize) throws IOException, DictionaryException {
         File f = new File(dbPath);
@@ -101,14 +105,26 @@ public abstract class AbstractDictionary {
         header.write(file);
     }
 
-    protected void addEntryToIndex(String key, PostHeader newRecord, int currentNumRecords) throws IOException, DictionaryException {
-        CustomByteArrayOutputStream temp = new CustomByteArrayOutputStream(MAX_KEY_LENGTH);
-        (new DataOutputStream(temp)).writeUTF(key);
-        if (temp.size() > MAX_KEY_LENGTH) {
+    /**
+     * Encodes the key into the reusable key buffer, checking it fits in an index entry.
+     */
+    private void encodeKey(String key) throws IOException, DictionaryException {
+        // every character takes at least one byte after the 2 byte length, so reject
+        // keys that cannot fit before they grow the reusable buffers
+        if (key.length() > MAX_KEY_LENGTH - 2) {
+            throw new DictionaryException("Key is larger than permitted size of " + MAX_KEY_LENGTH + " bytes");
+        }
+        keyBuffer.reset();
+        keyOut.writeUTF(key);
+        if (keyBuffer.size() > MAX_KEY_LENGTH) {
             throw new DictionaryException("Key is larger than permitted size of " + MAX_KEY_LENGTH + " bytes");
         }
+    }
+
+    protected void addEntryToIndex(String key, PostHeader newRecord, int currentNumRecords) throws IOException, DictionaryException {
+        encodeKey(key);
         file.seek(indexPositionToKeyFp(currentNumRecords));
-        temp.writeTo(file);
+        keyBuffer.writeTo(file);
         file.seek(indexPositionToRecordHeaderFp(currentNumRecords));
         newRecord.write(file);
         newRecord.setIndexPosition(currentNumRecords);
@@ -120,8 +136,9 @@ public abstract class AbstractDictionary {
             String lastKey = readKeyFromIndex(currentNumRecords-1);
             PostHeader last  = keyToRecordHeader(lastKey);
             last.setIndexPosition(header.indexPosition);
+            encodeKey(lastKey);
             file.seek(indexPositionToKeyFp(last.indexPosition));
-            file.writeUTF(lastKey);
+            keyBuffer.writeTo(file);
             file.seek(indexPositionToRecordHeaderFp(last.indexPosition));
             last.write(file);
         }
@@ -155,17 +172,61 @@ public abstract class AbstractDictionary {
         return new PostReader(key, data);
     }
 
+    /**
+     * Reads the record into an existing PostReader, reusing its buffer if it is
+     * large enough. Lets callers read many records without allocating per read.
+     * The array previously returned by the reader's getData() may be overwritten.
+     * If the read fails the reader is left empty.
+     */
+    public synchronized void readRecord(String key, PostReader reader) throws DictionaryException, IOException {
+        PostHeader header = keyToRecordHeader(key);
+        byte[] buf = reader.ensureCapacity(header.dataCount);
+        int count;
+        try {
+            count = readRecordData(header, buf);
+        } catch (IOException e) {
+            // buf may be the reader's own buffer, now partly overwritten
+            reader.reset(null, buf, 0);
+            throw e;
+        }
+        reader.reset(key, buf, count);
+    }
+
+    /**
+     * Reads the record data into the caller-supplied buffer and returns the number
+     * of bytes read. The buffer must hold at least getRecordLength(key) bytes.
+     */
+    public synchronized int readRecord(String key, byte[] buf) throws DictionaryException, IOException {
+        PostHeader header = keyToRecordHeader(key);
+        if (buf.length < header.dataCount) {
+            throw new DictionaryException("Buffer too small for record: " + key);
+        }
+        return readRecordData(header, buf);
+    }
+
+    /**
+     * Returns the number of bytes of data held in the record belonging to the given key.
+     */
+    public synchronized int getRecordLength(String key) throws DictionaryException {
+        return keyToRecordHeader(key).dataCount;
+    }
+
     protected byte[] readRecordData(String key) throws IOException, DictionaryException {
         return readRecordData(keyToRecordHeader(key));
     }
 
     protected byte[] readRecordData(PostHeader header) throws IOException {
         byte[] buf = new byte[header.dataCount];
-        file.seek(header.dataPointer);
-        file.readFully(buf);
+        readRecordData(header, buf);
         return buf;
     }
 
+    protected int readRecordData(PostHeader header, byte[] buf) throws IOException {
+        file.seek(header.dataPointer);
+        file.readFully(buf, 0, header.dataCount);
+        return header.dataCount;
+    }
+
     protected void writeRecordData(PostHeader header, PostWriter rw) throws IOException, DictionaryException {
         if (rw.getDataLength() > header.dataCapacity) {
             throw new DictionaryException("Record data does not fit");
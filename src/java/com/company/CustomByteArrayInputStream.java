@@ -0,0 +1,23 @@
+package com.company;
+import java.io.*;
+/**
+ * Extends ByteArrayInputStream to provide a way of pointing the stream at
+ * a new buffer without re-allocating the stream.
+ */
+public class CustomByteArrayInputStream extends ByteArrayInputStream {
+    public CustomByteArrayInputStream(byte[] buf) {
+        super(buf);
+    }
+    public CustomByteArrayInputStream(byte[] buf, int offset, int length) {
+        super(buf, offset, length);
+    }
+    /**
+     * Resets the stream to read length bytes of the given buffer, starting at offset.
+     */
+    public synchronized void setBuffer(byte[] buf, int offset, int length) {
+        this.buf = buf;
+        this.pos = offset;
+        this.count = Math.min(offset + length, buf.length);
+        this.mark = offset;
+    }
+}
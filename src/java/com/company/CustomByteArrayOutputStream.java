@@ -19,4 +19,10 @@ public class CustomByteArrayOutputStream extends ByteArrayOutputStream {
         int l = super.size();
         dstr.write(data, 0, l);
     }
+    /**
+     * Returns the current size of the internal buffer.
+     */
+    public synchronized int capacity() {
+        return super.buf.length;
+    }
 }
\ No newline at end of file
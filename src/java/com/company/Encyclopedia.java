@@ -6,6 +6,26 @@ public class Encyclopedia {
 
     private Dictionary dictionary;
 
+    /**
+     * Per-thread writer and reader, reused across calls so a request does not
+     * allocate new buffers and streams.
+     */
+    private final ThreadLocal<PostWriter> writers = new ThreadLocal<PostWriter>() {
+        protected PostWriter initialValue() {
+            return new PostWriter(null);
+        }
+    };
+    private final ThreadLocal<PostReader> readers = new ThreadLocal<PostReader>() {
+        protected PostReader initialValue() {
+            return new PostReader();
+        }
+    };
+    /**
+     * Pooled writers and readers whose buffers have grown beyond this many bytes are
+     * dropped after use, so one large post does not keep its buffer alive in every thread.
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
     /**
      * This constructor to create new dictionary (also new database file)
      *
@@ -64,10 +84,15 @@ public class Encyclopedia {
      *
      */
     public void insertNewPost(Post post) throws IOException, DictionaryException {
-        PostWriter postWriter = new PostWriter(post.getPhrase());
-        postWriter.writeObject(post.getExplanation());
-
-        dictionary.insertRecord(postWriter);
+        PostWriter postWriter = writers.get();
+        try {
+            postWriter.reset(post.getPhrase());
+            postWriter.writeObject(post.getExplanation());
+
+            dictionary.insertRecord(postWriter);
+        } finally {
+            releaseWriter(postWriter);
+        }
 
     }
 
@@ -76,10 +101,15 @@ public class Encyclopedia {
      *
      */
     public void updatePost(Post post) throws IOException, DictionaryException {
-        PostWriter postWriter = new PostWriter(post.getPhrase());
-        postWriter.writeObject(post.getExplanation());
-
-        dictionary.updateRecord(postWriter);
+        PostWriter postWriter = writers.get();
+        try {
+            postWriter.reset(post.getPhrase());
+            postWriter.writeObject(post.getExplanation());
+
+            dictionary.updateRecord(postWriter);
+        } finally {
+            releaseWriter(postWriter);
+        }
 
     }
 
@@ -88,8 +118,14 @@ public class Encyclopedia {
      *
      */
     public Post searchPhrase(String phraseToSearch) throws IOException, DictionaryException, ClassNotFoundException {
-        PostReader postReader = dictionary.readRecord(phraseToSearch);
-        String explanation = (String) postReader.readObject();
+        PostReader postReader = readers.get();
+        String explanation;
+        try {
+            dictionary.readRecord(phraseToSearch, postReader);
+            explanation = (String) postReader.readObject();
+        } finally {
+            releaseReader(postReader);
+        }
 
         Post result = new Post();
         result.setPhrase(phraseToSearch);
@@ -106,4 +142,16 @@ public class Encyclopedia {
         dictionary.deleteRecord(phrase);
 
     }
+
+    private void releaseWriter(PostWriter postWriter) {
+        if (postWriter.getBufferCapacity() > MAX_POOLED_BUFFER_SIZE) {
+            writers.remove();
+        }
+    }
+
+    private void releaseReader(PostReader postReader) {
+        if (postReader.getData().length > MAX_POOLED_BUFFER_SIZE) {
+            readers.remove();
+        }
+    }
 }
@@ -1,34 +1,174 @@
 package com.company;
 import java.io.*;
 public class PostReader {
+    // Length of the magic number and version which start a serialization stream.
+    private static final int STREAM_HEADER_LENGTH = 4;
     String key;
     byte[] data;
-    ByteArrayInputStream in;
+    int dataLength;
+    CustomByteArrayInputStream in;
     ObjectInputStream objIn;
+    // Object decoder kept across records, and the view of in which it reads from.
+    private RecordInputStream recordIn;
+    private RecordObjectInputStream decoder;
+    /**
+     * Creates an empty reader which can be filled with Dictionary.readRecord(key, reader).
+     */
+    public PostReader() {
+        this(null, new byte[0]);
+    }
     public PostReader(String key, byte[] data) {
+        this(key, data, data.length);
+    }
+    public PostReader(String key, byte[] data, int dataLength) {
         this.key = key;
         this.data = data;
-        in = new ByteArrayInputStream(data);
+        this.dataLength = dataLength;
+        in = new CustomByteArrayInputStream(data, 0, dataLength);
     }
     public String getKey() {
         return key;
     }
+    /**
+     * Returns the data buffer. Only the first getDataLength() bytes belong to the record.
+     */
     public byte[] getData() {
         return data;
     }
+    /**
+     * Returns the number of bytes in the data.
+     */
+    public int getDataLength() {
+        return dataLength;
+    }
     public InputStream getInputStream() throws IOException {
         return in;
     }
     public ObjectInputStream getObjectInputStream() throws IOException {
+        ObjectInputStream stream = objectInput();
+        // the caller may leave the stream part way through a block, so do not reuse it
+        decoder = null;
+        return stream;
+    }
+    /**
+     * Reads the next object in the record using an ObjectInputStream.
+     */
+    public Object readObject() throws IOException, OptionalDataException, ClassNotFoundException {
+        boolean done = false;
+        try {
+            Object o = objectInput().readObject();
+            done = true;
+            return o;
+        } finally {
+            if (!done) {
+                // a failed read can leave the decoder in any state
+                decoder = null;
+            }
+        }
+    }
+    /**
+     * Points this reader at a new record without re-allocating its input streams.
+     */
+    public void reset(String key, byte[] data, int dataLength) {
+        this.key = key;
+        this.data = data;
+        this.dataLength = dataLength;
+        in.setBuffer(data, 0, dataLength);
+        objIn = null;
+    }
+    /**
+     * Returns the data buffer if it can hold length bytes, otherwise a new buffer
+     * large enough. The reader itself is only changed by reset().
+     */
+    byte[] ensureCapacity(int length) {
+        if (data.length < length) {
+            return new byte[length];
+        }
+        return data;
+    }
+    /**
+     * Returns the object stream for the current record. Where the record has a stream
+     * header, the decoder kept from an earlier record reads on from after the header,
+     * with a TC_RESET in front which clears its handle table.
+     */
+    private ObjectInputStream objectInput() throws IOException {
         if (objIn == null) {
-            objIn = new ObjectInputStream(in);
+            int pos = dataLength - in.available();
+            if (hasStreamHeader(pos)) {
+                if (recordIn == null) {
+                    recordIn = new RecordInputStream(in);
+                }
+                // consume the header from in, as a new ObjectInputStream would
+                in.skip(STREAM_HEADER_LENGTH);
+                recordIn.setLead(ObjectStreamConstants.TC_RESET);
+                if (decoder == null) {
+                    decoder = new RecordObjectInputStream(recordIn);
+                }
+                objIn = decoder;
+            } else {
+                objIn = new ObjectInputStream(in);
+            }
         }
         return objIn;
     }
+    private boolean hasStreamHeader(int pos) {
+        return dataLength - pos >= STREAM_HEADER_LENGTH
+                && readShort(pos) == ObjectStreamConstants.STREAM_MAGIC
+                && readShort(pos + 2) == ObjectStreamConstants.STREAM_VERSION;
+    }
+    private short readShort(int offset) {
+        return (short) (((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF));
+    }
     /**
-     * Reads the next object in the record using an ObjectInputStream.
+     * Reads from the reader's input stream, after first returning one extra byte. Raw
+     * reads through getInputStream() and object reads share one position in the record.
      */
-    public Object readObject() throws IOException, OptionalDataException, ClassNotFoundException {
-        return getObjectInputStream().readObject();
+    private static class RecordInputStream extends InputStream {
+        private final InputStream in;
+        // Byte to return before reading from in, or -1 once it has been read.
+        private int lead = -1;
+        RecordInputStream(InputStream in) {
+            this.in = in;
+        }
+        void setLead(int lead) {
+            this.lead = lead;
+        }
+        public int read() throws IOException {
+            if (lead >= 0) {
+                int b = lead;
+                lead = -1;
+                return b;
+            }
+            return in.read();
+        }
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (lead < 0 || len == 0) {
+                return in.read(b, off, len);
+            }
+            b[off] = (byte) read();
+            int n = in.read(b, off + 1, len - 1);
+            return n < 0 ? 1 : n + 1;
+        }
+        public long skip(long n) throws IOException {
+            if (lead >= 0 && n > 0) {
+                read();
+                return 1 + in.skip(n - 1);
+            }
+            return in.skip(n);
+        }
+        public int available() throws IOException {
+            return in.available() + (lead >= 0 ? 1 : 0);
+        }
+    }
+    /**
+     * ObjectInputStream which does not expect a stream header, so it can be kept and
+     * fed one record after another. The header is checked by hasStreamHeader(int).
+     */
+    private static class RecordObjectInputStream extends ObjectInputStream {
+        RecordObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+        protected void readStreamHeader() {
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,12 @@
 package com.company;
 import java.io.*;
+import java.util.*;
 public class PostWriter {
     String key;
     CustomByteArrayOutputStream out;
-    ObjectOutputStream objOut;
+    RecordObjectOutputStream objOut;
+    // Set by reset() when the next use of objOut must start with a stream header.
+    boolean headerNeeded;
     public PostWriter(String key) {
         this.key = key;
         out = new CustomByteArrayOutputStream();
@@ -16,8 +19,12 @@ public class PostWriter {
     }
     public ObjectOutputStream getObjectOutputStream() throws IOException {
         if (objOut == null) {
-            objOut = new ObjectOutputStream(out);
+            objOut = new RecordObjectOutputStream(out);
+        } else if (headerNeeded) {
+            // written where a new ObjectOutputStream would write it, after any raw bytes
+            objOut.writeHeader();
         }
+        headerNeeded = false;
         return objOut;
     }
     public void writeObject(Object o) throws IOException {
@@ -30,10 +37,65 @@ public class PostWriter {
     public int getDataLength() {
         return out.size();
     }
+    /**
+     * Returns the size of the buffer holding the data, which is at least getDataLength().
+     */
+    int getBufferCapacity() {
+        return out.capacity();
+    }
+    /**
+     * Clears the data so the writer can be reused for another record without
+     * re-allocating its buffer or ObjectOutputStream.
+     */
+    public void reset(String key) throws IOException {
+        this.key = key;
+        if (objOut != null) {
+            objOut.endRecord();
+            headerNeeded = true;
+        }
+        out.reset();
+    }
     /**
      *  Writes the data out to the stream without re-allocating the buffer.
      */
     public void writeTo(DataOutput str) throws IOException {
         out.writeTo(str);
     }
+    /**
+     * ObjectOutputStream which can start a new record in its buffer instead of being
+     * re-created for every record.
+     */
+    private static class RecordObjectOutputStream extends ObjectOutputStream {
+        private final CustomByteArrayOutputStream buffer;
+        // Stream header exactly as the JDK wrote it when this stream was constructed.
+        private final byte[] header;
+        RecordObjectOutputStream(CustomByteArrayOutputStream buffer) throws IOException {
+            this(buffer, buffer.size());
+        }
+        private RecordObjectOutputStream(CustomByteArrayOutputStream buffer, int start) throws IOException {
+            super(buffer);
+            flush();
+            this.buffer = buffer;
+            this.header = Arrays.copyOfRange(buffer.toByteArray(), start, buffer.size());
+        }
+        /**
+         * Ends the current record. Every record is read back by its own ObjectInputStream,
+         * so it must not refer back to objects written in an earlier record.
+         */
+        void endRecord() throws IOException {
+            // clear the handle table; flush pushes the TC_RESET marker out of the
+            // internal block buffer so that it is discarded with the old record
+            reset();
+            flush();
+        }
+        /**
+         * Writes the stream header at the current end of the buffer, as a new
+         * ObjectOutputStream would, so the record can be read by its own ObjectInputStream.
+         */
+        void writeHeader() {
+            // writeStreamHeader() cannot be called again here: once constructed the
+            // stream is in block data mode and would wrap the header in a data block
+            buffer.write(header, 0, header.length);
+        }
+    }
 }
\ No newline at end of file
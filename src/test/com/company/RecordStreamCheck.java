@@ -0,0 +1,231 @@
+package com.company;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OptionalDataException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that reused PostWriters and PostReaders produce and decode the same bytes as
+ * fresh Java serialization streams. Exits with an AssertionError on the first failure.
+ *
+ * Run from the repository root with:
+ *   javac -d out src/java/com/company/*.java src/test/com/company/*.java
+ *   java -cp out com.company.RecordStreamCheck
+ */
+public class RecordStreamCheck {
+
+    public static void main(String[] args) throws Exception {
+        reusedWriterMatchesObjectOutputStream();
+        reusedWriterMatchesFreshWriterWithRawBytes();
+        readerDecodesConsecutiveRecords();
+        readerRecoversAfterOptionalDataException();
+        readerSharesPositionWithInputStream();
+        failedReadEmptiesReader();
+        System.out.println("All checks passed");
+    }
+
+    private static Object[] values() {
+        List<String> shared = new ArrayList<String>();
+        shared.add("shared");
+        return new Object[] {
+                null,
+                "short",
+                new int[] {1, 2, 3},
+                new Object[] {shared, shared, "x", "x"},
+                repeat('y', 70000),
+                new String[][] {{"a"}, {}},
+                shared
+        };
+    }
+
+    private static void reusedWriterMatchesObjectOutputStream() throws Exception {
+        PostWriter writer = new PostWriter(null);
+        Object[] values = values();
+        for (int i = 0; i < values.length; i++) {
+            writer.reset("k" + i);
+            writer.writeObject(values[i]);
+            check(Arrays.equals(bytes(writer), serialize(values[i])), "writer bytes for value " + i);
+        }
+        // back-reference to an object written earlier in the same record
+        Object shared = values[values.length - 1];
+        writer.reset("twice");
+        writer.writeObject(shared);
+        writer.writeObject(shared);
+        check(Arrays.equals(bytes(writer), serialize(shared, shared)), "writer bytes for back-reference");
+        System.out.println("ok reused writer matches ObjectOutputStream");
+    }
+
+    private static void reusedWriterMatchesFreshWriterWithRawBytes() throws Exception {
+        PostWriter reused = new PostWriter("a");
+        reused.writeObject("first");
+
+        reused.reset("raw");
+        reused.getOutputStream().write(new byte[] {1, 2, 3});
+        PostWriter fresh = new PostWriter("raw");
+        fresh.getOutputStream().write(new byte[] {1, 2, 3});
+        check(Arrays.equals(bytes(reused), bytes(fresh)), "raw only record");
+
+        reused.reset("prefix");
+        reused.getOutputStream().write(9);
+        reused.writeObject("t");
+        fresh = new PostWriter("prefix");
+        fresh.getOutputStream().write(9);
+        fresh.writeObject("t");
+        check(Arrays.equals(bytes(reused), bytes(fresh)), "raw prefix then object");
+        System.out.println("ok reused writer matches fresh writer with raw bytes");
+    }
+
+    private static void readerDecodesConsecutiveRecords() throws Exception {
+        PostWriter writer = new PostWriter(null);
+        PostReader reader = new PostReader();
+        Object[] values = values();
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < values.length; i++) {
+                writer.reset("k" + i);
+                writer.writeObject(values[i]);
+                load(reader, writer);
+                Object read = reader.readObject();
+                check(Arrays.deepEquals(new Object[] {values[i]}, new Object[] {read}), "reader value " + i);
+            }
+            Object shared = values[values.length - 1];
+            writer.reset("twice");
+            writer.writeObject(shared);
+            writer.writeObject(shared);
+            load(reader, writer);
+            Object first = reader.readObject();
+            check(first.equals(shared) && reader.readObject() == first, "reader back-reference");
+        }
+        System.out.println("ok one reader decodes consecutive records");
+    }
+
+    private static void readerRecoversAfterOptionalDataException() throws Exception {
+        PostWriter writer = new PostWriter("data");
+        writer.getObjectOutputStream().writeInt(5);
+        writer.getObjectOutputStream().flush();
+        PostReader reader = new PostReader();
+        load(reader, writer);
+        boolean thrown = false;
+        try {
+            reader.readObject();
+        } catch (OptionalDataException e) {
+            thrown = true;
+        }
+        check(thrown, "OptionalDataException for primitive data");
+
+        writer.reset("object");
+        writer.writeObject("after");
+        load(reader, writer);
+        check("after".equals(reader.readObject()), "reader after OptionalDataException");
+        System.out.println("ok reader recovers after OptionalDataException");
+    }
+
+    private static void readerSharesPositionWithInputStream() throws Exception {
+        PostWriter writer = new PostWriter("object");
+        writer.writeObject("ab");
+        PostReader reader = new PostReader();
+        load(reader, writer);
+        check("ab".equals(reader.readObject()), "object only record");
+        check(reader.getInputStream().available() == 0, "input stream consumed by readObject");
+
+        writer.reset("trailing");
+        writer.writeObject("ab");
+        writer.getOutputStream().write(new byte[] {7, 8, 9});
+        load(reader, writer);
+        check("ab".equals(reader.readObject()), "object before raw bytes");
+        InputStream in = reader.getInputStream();
+        check(in.available() == 3 && in.read() == 7 && in.read() == 8 && in.read() == 9,
+                "raw bytes after object");
+
+        writer.reset("prefix");
+        writer.getOutputStream().write(6);
+        writer.writeObject("cd");
+        load(reader, writer);
+        check(reader.getInputStream().read() == 6, "raw byte before object");
+        check("cd".equals(reader.readObject()), "object after raw byte");
+        System.out.println("ok reader shares its position with getInputStream()");
+    }
+
+    private static void failedReadEmptiesReader() throws Exception {
+        File dir = File.createTempFile("encyclopedia-check", "");
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Could not create directory: " + dir);
+        }
+        final boolean[] fail = new boolean[1];
+        Dictionary dictionary = new Dictionary(new File(dir, "dictionary").getPath(), 16) {
+            protected int readRecordData(PostHeader header, byte[] buf) throws IOException {
+                if (fail[0]) {
+                    buf[0] = 0;
+                    throw new IOException("Simulated read failure");
+                }
+                return super.readRecordData(header, buf);
+            }
+        };
+        try {
+            PostWriter writer = new PostWriter("k");
+            writer.writeObject("value");
+            dictionary.insertRecord(writer);
+            PostReader reader = new PostReader();
+            dictionary.readRecord("k", reader);
+            fail[0] = true;
+            boolean thrown = false;
+            try {
+                dictionary.readRecord("k", reader);
+            } catch (IOException e) {
+                thrown = true;
+            }
+            check(thrown, "simulated read failure");
+            check(reader.getKey() == null && reader.getDataLength() == 0
+                    && reader.getInputStream().available() == 0, "reader empty after failed read");
+            fail[0] = false;
+            dictionary.readRecord("k", reader);
+            check("value".equals(reader.readObject()), "reader usable after failed read");
+        } finally {
+            dictionary.close();
+            new File(dir, "dictionary").delete();
+            dir.delete();
+        }
+        System.out.println("ok failed read empties the reader");
+    }
+
+    private static void load(PostReader reader, PostWriter writer) throws IOException {
+        byte[] data = bytes(writer);
+        reader.reset(writer.getKey(), data, data.length);
+    }
+
+    private static byte[] bytes(PostWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeTo(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static byte[] serialize(Object... values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        for (int i = 0; i < values.length; i++) {
+            out.writeObject(values[i]);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static String repeat(char c, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            throw new AssertionError("Check failed: " + what);
+        }
+    }
+}